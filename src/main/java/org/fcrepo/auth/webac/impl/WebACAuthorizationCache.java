@@ -0,0 +1,180 @@
+/**
+ * Copyright 2015 DuraSpace, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.auth.webac.impl;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import org.fcrepo.auth.webac.WebACAuthorization;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A non-blocking cache of the authorizations that apply to an ACL path. On a cache miss the
+ * authorizations are resolved by the loader on the supplied executor and compiled into shared rules;
+ * concurrent misses for the same path are coalesced so that only one load runs, and every caller
+ * receives the same future.
+ *
+ * <p>Loads are expected to block on repository reads, so the executor should not be a small shared
+ * pool: a cached thread pool or, where available, a virtual-thread-per-task executor is appropriate.
+ * Because the load runs on an executor thread, the loader must not use a JCR session that belongs to
+ * the requesting thread; {@link WebACAuthorizationLoader} opens a session of its own for each load.</p>
+ *
+ * <p>Failed loads are not cached. Successful loads are kept until {@link #invalidate(String)} or
+ * {@link #invalidateAll()} is called, e.g. when an ACL is modified, or until the cache exceeds its
+ * maximum size. Eviction removes arbitrary completed entries rather than the least recently used.</p>
+ *
+ * @author agent
+ * @since 10/18/26
+ */
+public class WebACAuthorizationCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebACAuthorizationCache.class);
+
+    /**
+     * The default maximum number of cached ACL paths.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+    private final ConcurrentMap<String, CompletableFuture<WebACRuleSet>> cache =
+            new ConcurrentHashMap<>();
+
+    private final Function<String, ? extends Collection<WebACAuthorization>> loader;
+
+    private final WebACAuthorizationCompiler compiler;
+
+    private final Executor executor;
+
+    private final int maximumSize;
+
+    /**
+     * Constructor
+     *
+     * @param loader resolves the authorizations for an ACL path
+     * @param executor the executor on which loads are run
+     */
+    public WebACAuthorizationCache(final Function<String, ? extends Collection<WebACAuthorization>> loader,
+            final Executor executor) {
+        this(loader, new WebACAuthorizationCompiler(), executor, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param loader resolves the authorizations for an ACL path
+     * @param compiler the compiler whose shared rules are used for every loaded ACL
+     * @param executor the executor on which loads are run
+     * @param maximumSize the maximum number of cached ACL paths
+     */
+    public WebACAuthorizationCache(final Function<String, ? extends Collection<WebACAuthorization>> loader,
+            final WebACAuthorizationCompiler compiler, final Executor executor, final int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        this.loader = loader;
+        this.compiler = compiler;
+        this.executor = executor;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Get the authorizations for an ACL path, loading them if they are not cached. The returned
+     * future is shared by all callers that request the same path while it is loading.
+     *
+     * @param aclPath the ACL path
+     * @return a future for the compiled authorizations
+     */
+    public CompletableFuture<WebACRuleSet> get(final String aclPath) {
+        final CompletableFuture<WebACRuleSet> cached = cache.get(aclPath);
+        if (cached != null) {
+            return cached;
+        }
+
+        final CompletableFuture<WebACRuleSet> future = new CompletableFuture<>();
+        final CompletableFuture<WebACRuleSet> existing = cache.putIfAbsent(aclPath, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        evict(aclPath);
+        LOGGER.debug("Loading authorizations for {}", aclPath);
+        try {
+            executor.execute(() -> load(aclPath, future));
+        } catch (final RejectedExecutionException ex) {
+            fail(aclPath, future, ex);
+        }
+        return future;
+    }
+
+    /**
+     * Discard the cached authorizations for an ACL path.
+     *
+     * @param aclPath the ACL path
+     */
+    public void invalidate(final String aclPath) {
+        cache.remove(aclPath);
+    }
+
+    /**
+     * Discard all cached authorizations.
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * Get the number of cached or loading ACL paths.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private void evict(final String aclPath) {
+        final Iterator<Map.Entry<String, CompletableFuture<WebACRuleSet>>> entries = cache.entrySet().iterator();
+        while (cache.size() > maximumSize && entries.hasNext()) {
+            final Map.Entry<String, CompletableFuture<WebACRuleSet>> entry = entries.next();
+            if (!entry.getKey().equals(aclPath) && entry.getValue().isDone()) {
+                entries.remove();
+            }
+        }
+    }
+
+    private void load(final String aclPath, final CompletableFuture<WebACRuleSet> future) {
+        try {
+            future.complete(compiler.compile(loader.apply(aclPath)));
+        } catch (final Throwable ex) {
+            fail(aclPath, future, ex);
+        }
+    }
+
+    private void fail(final String aclPath, final CompletableFuture<WebACRuleSet> future,
+            final Throwable ex) {
+        LOGGER.warn("Unable to load authorizations for {}: {}", aclPath, ex.getMessage());
+        cache.remove(aclPath, future);
+        future.completeExceptionally(ex);
+    }
+
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright 2015 DuraSpace, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.auth.webac.impl;
+
+import static java.util.Collections.unmodifiableSet;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.fcrepo.auth.webac.WebACAuthorization;
+
+/**
+ * Compiles WebAC authorizations into rule sets in which structurally identical authorizations share a
+ * single, immutable {@link WebACRule}. Authorizations are considered identical when their acl:agent,
+ * acl:agentClass, acl:mode and acl:accessToClass values are equal.
+ *
+ * <p>Rules are pooled across every call on the same compiler, so a template ACL that is copied to
+ * thousands of collections yields one rule. The pool only holds its rules weakly: once no rule set
+ * refers to a rule any more, e.g. after its ACLs are evicted from a cache, the rule is reclaimed and its
+ * pool entry is removed. The compiler is safe for concurrent use.</p>
+ *
+ * @author agent
+ * @since 10/18/26
+ */
+public class WebACAuthorizationCompiler {
+
+    private final ConcurrentMap<PolicyKey, RuleReference> rules = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<WebACRule> reclaimed = new ReferenceQueue<>();
+
+    /**
+     * Get the shared rule for the policy of an authorization.
+     *
+     * @param authorization the authorization
+     * @return the shared, immutable rule
+     */
+    public WebACRule intern(final WebACAuthorization authorization) {
+        expunge();
+        final PolicyKey key = new PolicyKey(authorization);
+        while (true) {
+            final RuleReference existing = rules.get(key);
+            final WebACRule rule = existing == null ? null : existing.get();
+            if (rule != null) {
+                return rule;
+            }
+            final WebACRule created = key.toRule();
+            final RuleReference reference = new RuleReference(key, created, reclaimed);
+            if (existing == null ? rules.putIfAbsent(key, reference) == null :
+                    rules.replace(key, existing, reference)) {
+                return created;
+            }
+        }
+    }
+
+    /**
+     * Compile the authorizations into a rule set indexed by acl:accessTo target. Every target that is
+     * granted by equivalent authorizations is mapped to the same rule instance, so the rules may safely
+     * be used as keys for caching evaluation results.
+     *
+     * @param authorizations the authorizations to compile
+     * @return the rule set
+     */
+    public WebACRuleSet compile(final Collection<? extends WebACAuthorization> authorizations) {
+        final Map<String, Set<WebACRule>> rulesByTarget = new HashMap<>();
+        final Set<WebACRule> classRules = new HashSet<>();
+        for (final WebACAuthorization auth : authorizations) {
+            final WebACRule rule = intern(auth);
+            for (final String target : auth.getAccessToURIs()) {
+                rulesByTarget.computeIfAbsent(target, k -> new HashSet<>()).add(rule);
+            }
+            if (!rule.getAccessToClassURIs().isEmpty()) {
+                classRules.add(rule);
+            }
+        }
+        return new WebACRuleSet(rulesByTarget, classRules);
+    }
+
+    /**
+     * Get the number of distinct rules in the pool, including rules that have been reclaimed but not
+     * yet removed.
+     *
+     * @return the number of rules
+     */
+    public int size() {
+        expunge();
+        return rules.size();
+    }
+
+    private void expunge() {
+        Reference<? extends WebACRule> reference;
+        while ((reference = reclaimed.poll()) != null) {
+            final RuleReference rule = (RuleReference) reference;
+            rules.remove(rule.key, rule);
+        }
+    }
+
+    /**
+     * A weak reference to a pooled rule that remembers its pool key.
+     */
+    private static final class RuleReference extends WeakReference<WebACRule> {
+
+        private final PolicyKey key;
+
+        private RuleReference(final PolicyKey key, final WebACRule rule, final ReferenceQueue<WebACRule> queue) {
+            super(rule, queue);
+            this.key = key;
+        }
+    }
+
+    /**
+     * The value-equality key for an authorization, ignoring its acl:accessTo targets.
+     */
+    private static final class PolicyKey {
+
+        private final Set<String> agents;
+
+        private final Set<String> agentClasses;
+
+        private final Set<URI> modes;
+
+        private final Set<String> accessToClass;
+
+        private PolicyKey(final WebACAuthorization auth) {
+            this.agents = unmodifiableSet(new HashSet<>(auth.getAgents()));
+            this.agentClasses = unmodifiableSet(new HashSet<>(auth.getAgentClasses()));
+            this.modes = unmodifiableSet(new HashSet<>(auth.getModes()));
+            this.accessToClass = unmodifiableSet(new HashSet<>(auth.getAccessToClassURIs()));
+        }
+
+        private WebACRule toRule() {
+            return new WebACRule(agents, agentClasses, modes, accessToClass);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PolicyKey)) {
+                return false;
+            }
+            final PolicyKey other = (PolicyKey) obj;
+            return agents.equals(other.agents) && agentClasses.equals(other.agentClasses) &&
+                    modes.equals(other.modes) && accessToClass.equals(other.accessToClass);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(agents, agentClasses, modes, accessToClass);
+        }
+    }
+}
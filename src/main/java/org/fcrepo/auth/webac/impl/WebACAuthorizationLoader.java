@@ -0,0 +1,177 @@
+/**
+ * Copyright 2015 DuraSpace, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.auth.webac.impl;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.fcrepo.auth.webac.URIConstants.FEDORA_WEBAC_ACL_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_ACCESSTO_CLASS_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_ACCESSTO_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_ACCESS_CONTROL_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_AGENT_CLASS_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_AGENT_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_AUTHORIZATION_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_VALUE;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+
+import org.fcrepo.auth.webac.WebACAuthorization;
+import org.fcrepo.kernel.exception.RepositoryRuntimeException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the WebAC authorizations that govern a repository path, for use as the loader of a
+ * {@link WebACAuthorizationCache}. The path may be that of an ACL (a webac:Acl resource) or of a
+ * protected resource, in which case its acl:accessControl link is followed; a resource without one
+ * inherits the ACL of its nearest ancestor that has one. The acl:Authorization children of the ACL
+ * are returned.
+ *
+ * <p>Each load opens, and logs out of, its own session, so that it may run on a cache executor
+ * thread. The acl:accessControl link is followed through the reference that Fedora keeps for links
+ * to repository resources; links to resources outside the repository are ignored.</p>
+ *
+ * @author agent
+ * @since 10/18/26
+ */
+public class WebACAuthorizationLoader implements Function<String, List<WebACAuthorization>> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebACAuthorizationLoader.class);
+
+    private static final String RDF_TYPE_VALUE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+
+    /**
+     * The property in which Fedora keeps a reference to the resource linked by acl:accessControl.
+     */
+    private static final String ACCESS_CONTROL_REFERENCE = expand(WEBAC_ACCESS_CONTROL_VALUE) + "_ref";
+
+    private final Repository repository;
+
+    /**
+     * Constructor
+     *
+     * @param repository the repository from which to load ACLs
+     */
+    public WebACAuthorizationLoader(final Repository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Load the authorizations that govern a path.
+     *
+     * @param path the path of an ACL or of a protected resource
+     * @return the authorizations, empty list if no ACL governs the path
+     * @throws RepositoryRuntimeException if the repository cannot be read
+     */
+    @Override
+    public List<WebACAuthorization> apply(final String path) {
+        Session session = null;
+        try {
+            session = repository.login();
+            final Node acl = findAcl(session.getNode(path));
+            if (acl == null) {
+                LOGGER.debug("No ACL governs {}", path);
+                return emptyList();
+            }
+
+            final List<WebACAuthorization> authorizations = new ArrayList<>();
+            final NodeIterator children = acl.getNodes();
+            while (children.hasNext()) {
+                final Node child = children.nextNode();
+                if (hasType(child, WEBAC_AUTHORIZATION_VALUE)) {
+                    authorizations.add(toAuthorization(child));
+                }
+            }
+            LOGGER.debug("Loaded {} authorizations for {} from {}", authorizations.size(), path, acl.getPath());
+            return authorizations;
+        } catch (final RepositoryException ex) {
+            throw new RepositoryRuntimeException(ex);
+        } finally {
+            if (session != null) {
+                session.logout();
+            }
+        }
+    }
+
+    private static Node findAcl(final Node resource) throws RepositoryException {
+        if (hasType(resource, FEDORA_WEBAC_ACL_VALUE)) {
+            return resource;
+        }
+        Node node = resource;
+        while (true) {
+            if (node.hasProperty(ACCESS_CONTROL_REFERENCE)) {
+                final Property property = node.getProperty(ACCESS_CONTROL_REFERENCE);
+                final Value value = property.isMultiple() ? property.getValues()[0] : property.getValue();
+                return node.getSession().getNodeByIdentifier(value.getString());
+            }
+            if (node.getDepth() == 0) {
+                return null;
+            }
+            node = node.getParent();
+        }
+    }
+
+    private static boolean hasType(final Node node, final String type) throws RepositoryException {
+        return values(node, RDF_TYPE_VALUE).contains(type) || node.isNodeType(expand(type));
+    }
+
+    private static WebACAuthorization toAuthorization(final Node node) throws RepositoryException {
+        return new WebACAuthorizationImpl(
+                values(node, WEBAC_AGENT_VALUE),
+                values(node, WEBAC_AGENT_CLASS_VALUE),
+                values(node, WEBAC_MODE_VALUE).stream().map(URI::create).collect(toList()),
+                values(node, WEBAC_ACCESSTO_VALUE),
+                values(node, WEBAC_ACCESSTO_CLASS_VALUE));
+    }
+
+    private static List<String> values(final Node node, final String predicate) throws RepositoryException {
+        final String name = expand(predicate);
+        if (!node.hasProperty(name)) {
+            return emptyList();
+        }
+        final Property property = node.getProperty(name);
+        if (!property.isMultiple()) {
+            return singletonList(property.getValue().getString());
+        }
+        final List<String> values = new ArrayList<>();
+        for (final Value value : property.getValues()) {
+            values.add(value.getString());
+        }
+        return values;
+    }
+
+    /**
+     * Convert a URI to the JCR expanded name form, {namespace}localName.
+     */
+    private static String expand(final String uri) {
+        final int split = Math.max(uri.lastIndexOf('#'), uri.lastIndexOf('/')) + 1;
+        return "{" + uri.substring(0, split) + "}" + uri.substring(split);
+    }
+
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright 2015 DuraSpace, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.auth.webac.impl;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The result of a policy simulation: every (resource, principal, mode) decision that differs
+ * between the current and the proposed authorizations.
+ *
+ * @author agent
+ * @since 10/18/26
+ */
+public class WebACPolicyReport {
+
+    private final long evaluated;
+
+    private final int unevaluated;
+
+    private final Set<String> unmatched;
+
+    private final List<Change> changes;
+
+    /**
+     * Constructor
+     *
+     * @param evaluated the number of decisions that were evaluated
+     * @param unevaluated the number of acl:accessToClass rules that matched no sampled resource type
+     * @param unmatched the sampled resources governed by no acl:accessTo target
+     * @param changes the decisions that differ
+     */
+    public WebACPolicyReport(final long evaluated, final int unevaluated, final Collection<String> unmatched,
+            final Collection<Change> changes) {
+        this.evaluated = evaluated;
+        this.unevaluated = unevaluated;
+        this.unmatched = unmodifiableSet(new HashSet<>(unmatched));
+        this.changes = unmodifiableList(new ArrayList<>(changes));
+    }
+
+    /**
+     * Get the number of (resource, principal, mode) decisions that were evaluated.
+     *
+     * @return the number of decisions
+     */
+    public long getEvaluated() {
+        return evaluated;
+    }
+
+    /**
+     * Get the number of distinct acl:accessToClass rules, current or proposed, that matched none of the
+     * sampled resource types. Their grants were not evaluated, so a non-zero value means the report
+     * may be missing changes.
+     *
+     * @return the number of unevaluated rules
+     */
+    public int getUnevaluated() {
+        return unevaluated;
+    }
+
+    /**
+     * Get the sampled resources that neither the current nor the proposed authorizations govern, because
+     * neither the resource nor any of its ancestors is an acl:accessTo target. Only acl:accessToClass
+     * rules were evaluated for them.
+     *
+     * @return the unmatched resources
+     */
+    public Set<String> getUnmatched() {
+        return unmatched;
+    }
+
+    /**
+     * Get all changed decisions.
+     *
+     * @return the changed decisions
+     */
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Get the decisions that the proposed authorizations would newly permit.
+     *
+     * @return the gained decisions
+     */
+    public List<Change> getGained() {
+        return changes.stream().filter(Change::isGranted).collect(toList());
+    }
+
+    /**
+     * Get the decisions that the proposed authorizations would no longer permit.
+     *
+     * @return the lost decisions
+     */
+    public List<Change> getLost() {
+        return changes.stream().filter(c -> !c.isGranted()).collect(toList());
+    }
+
+    /**
+     * Get the resources whose access would change.
+     *
+     * @return the affected resources
+     */
+    public Set<String> getAffectedResources() {
+        return changes.stream().map(Change::getResource).collect(toSet());
+    }
+
+    /**
+     * Get the principals whose access would change.
+     *
+     * @return the affected principals
+     */
+    public Set<String> getAffectedPrincipals() {
+        return changes.stream().map(Change::getPrincipal).collect(toSet());
+    }
+
+    @Override
+    public String toString() {
+        return "Evaluated " + evaluated + " decisions: " + getGained().size() + " gained, " +
+                getLost().size() + " lost, affecting " + getAffectedResources().size() + " resources and " +
+                getAffectedPrincipals().size() + " principals; " + unevaluated +
+                " class-based rules not evaluated; " + unmatched.size() + " resources unmatched";
+    }
+
+    /**
+     * A single decision that differs between the current and the proposed authorizations.
+     */
+    public static class Change {
+
+        private final String resource;
+
+        private final String principal;
+
+        private final URI mode;
+
+        private final boolean granted;
+
+        /**
+         * Constructor
+         *
+         * @param resource the resource
+         * @param principal the principal
+         * @param mode the acl:mode
+         * @param granted whether the proposed authorizations permit what the current ones deny
+         */
+        public Change(final String resource, final String principal, final URI mode, final boolean granted) {
+            this.resource = resource;
+            this.principal = principal;
+            this.mode = mode;
+            this.granted = granted;
+        }
+
+        /**
+         * @return the resource
+         */
+        public String getResource() {
+            return resource;
+        }
+
+        /**
+         * @return the principal
+         */
+        public String getPrincipal() {
+            return principal;
+        }
+
+        /**
+         * @return the acl:mode
+         */
+        public URI getMode() {
+            return mode;
+        }
+
+        /**
+         * @return true if access is gained, false if it is lost
+         */
+        public boolean isGranted() {
+            return granted;
+        }
+
+        @Override
+        public String toString() {
+            return (granted ? "+ " : "- ") + principal + " " + mode + " " + resource;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright 2015 DuraSpace, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.auth.webac.impl;
+
+import static com.hp.hpl.jena.rdf.model.ModelFactory.createDefaultModel;
+import static com.hp.hpl.jena.vocabulary.RDF.type;
+import static java.util.Collections.emptySet;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.fcrepo.auth.webac.URIConstants.FOAF_AGENT_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_ACCESSTO_CLASS_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_ACCESSTO_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_AGENT_CLASS_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_AGENT_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_AUTHORIZATION_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_APPEND;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_CONTROL;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_READ;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_WRITE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.fcrepo.auth.webac.WebACAuthorization;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.Resource;
+
+/**
+ * Offline "what-if" evaluator for bulk ACL changes. Given the current and a proposed set of
+ * authorizations, it evaluates every (resource, principal, mode) combination of a sample against
+ * both and reports the decisions that would change.
+ *
+ * <p>A principal is permitted a mode on a resource when an authorization that applies to the
+ * resource grants the mode and names the principal as an acl:agent or acl:agentClass, or names
+ * foaf:Agent (everyone). An authorization applies to a resource that is one of its acl:accessTo
+ * targets, or whose rdf:types include one of its acl:accessToClass values.</p>
+ *
+ * <p>As in Fedora, a resource that is not an acl:accessTo target inherits the authorizations of its
+ * nearest ancestor that is. Ancestors are found by URI path alone, since the simulator has no
+ * repository to consult for acl:accessControl links; a sampled resource that has no target among
+ * itself and its ancestors in either set is listed in {@link WebACPolicyReport#getUnmatched()}.</p>
+ *
+ * @author agent
+ * @since 10/18/26
+ */
+public class WebACPolicySimulator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebACPolicySimulator.class);
+
+    private static final List<URI> MODES =
+            Arrays.asList(WEBAC_MODE_READ, WEBAC_MODE_WRITE, WEBAC_MODE_APPEND, WEBAC_MODE_CONTROL);
+
+    private final WebACRuleSet current;
+
+    private final WebACRuleSet proposed;
+
+    /**
+     * Constructor
+     *
+     * @param current the authorizations currently in effect
+     * @param proposed the proposed authorizations
+     */
+    public WebACPolicySimulator(final Collection<? extends WebACAuthorization> current,
+            final Collection<? extends WebACAuthorization> proposed) {
+        final WebACAuthorizationCompiler compiler = new WebACAuthorizationCompiler();
+        this.current = compiler.compile(current);
+        this.proposed = compiler.compile(proposed);
+    }
+
+    /**
+     * Compare the current and proposed decisions for every resource and principal in the sample,
+     * without resource types. Authorizations that grant only through acl:accessToClass cannot be
+     * evaluated and are counted in {@link WebACPolicyReport#getUnevaluated()}.
+     *
+     * @param resources the resource URIs to evaluate
+     * @param principals the principal names to evaluate
+     * @return the report of changed decisions
+     */
+    public WebACPolicyReport simulate(final Collection<String> resources, final Collection<String> principals) {
+        final Map<String, Collection<String>> untyped = new HashMap<>();
+        resources.forEach(resource -> untyped.put(resource, emptySet()));
+        return simulate(untyped, principals);
+    }
+
+    /**
+     * Compare the current and proposed decisions for every resource and principal in the sample.
+     * Each resource is given with its rdf:types, which are matched against acl:accessToClass values.
+     * Resources are evaluated in parallel.
+     *
+     * @param resources the resource URIs to evaluate, with their rdf:types
+     * @param principals the principal names to evaluate
+     * @return the report of changed decisions
+     */
+    public WebACPolicyReport simulate(final Map<String, ? extends Collection<String>> resources,
+            final Collection<String> principals) {
+        final Set<String> sampledPrincipals = new LinkedHashSet<>(principals);
+        final List<WebACPolicyReport.Change> changes = resources.entrySet().parallelStream()
+                .flatMap(resource -> sampledPrincipals.stream()
+                        .flatMap(principal -> diff(resource.getKey(), resource.getValue(), principal)))
+                .collect(toList());
+        final long evaluated = (long) resources.size() * sampledPrincipals.size() * MODES.size();
+        final Set<String> unmatched = resources.keySet().stream()
+                .filter(resource -> current.resolveTarget(resource) == null &&
+                        proposed.resolveTarget(resource) == null)
+                .collect(toSet());
+
+        final Set<String> sampledTypes = new HashSet<>();
+        resources.values().forEach(sampledTypes::addAll);
+        final Set<WebACRule> classRules = new HashSet<>(current.getClassRules());
+        classRules.addAll(proposed.getClassRules());
+        final int unevaluated = (int) classRules.stream()
+                .filter(rule -> rule.getAccessToClassURIs().stream().noneMatch(sampledTypes::contains))
+                .count();
+
+        final WebACPolicyReport report = new WebACPolicyReport(evaluated, unevaluated, unmatched, changes);
+        LOGGER.debug("Policy simulation: {}", report);
+        return report;
+    }
+
+    private Stream<WebACPolicyReport.Change> diff(final String resource, final Collection<String> types,
+            final String principal) {
+        final Set<WebACRule> before = current.getEffectiveRules(resource, types);
+        final Set<WebACRule> after = proposed.getEffectiveRules(resource, types);
+        return MODES.stream()
+                .filter(mode -> permits(before, principal, mode) != permits(after, principal, mode))
+                .map(mode -> new WebACPolicyReport.Change(resource, principal, mode,
+                        permits(after, principal, mode)));
+    }
+
+    /**
+     * Determine whether any of the rules grant the mode to the principal.
+     *
+     * @param rules the rules that apply to a resource
+     * @param principal the principal name
+     * @param mode the acl:mode
+     * @return whether the mode is permitted
+     */
+    public static boolean permits(final Collection<WebACRule> rules, final String principal, final URI mode) {
+        return rules.stream().anyMatch(rule -> rule.getModes().contains(mode) && appliesTo(rule, principal));
+    }
+
+    private static boolean appliesTo(final WebACRule rule, final String principal) {
+        return rule.getAgents().contains(principal) || rule.getAgentClasses().contains(principal) ||
+                rule.getAgents().contains(FOAF_AGENT_VALUE) || rule.getAgentClasses().contains(FOAF_AGENT_VALUE);
+    }
+
+    /**
+     * Read the acl:Authorization resources from every Turtle (.ttl) file under a directory. Each file
+     * is parsed with its own file URI as base, so that files using the relative &lt;&gt; subject
+     * describe distinct authorizations.
+     *
+     * @param directory the directory to search
+     * @return the authorizations found
+     * @throws IOException if a file cannot be read
+     */
+    public static List<WebACAuthorization> readAuthorizations(final Path directory) throws IOException {
+        final List<Path> files;
+        try (final Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().endsWith(".ttl"))
+                    .sorted()
+                    .collect(toList());
+        }
+
+        final List<WebACAuthorization> authorizations = new ArrayList<>();
+        for (final Path file : files) {
+            final Model model = createDefaultModel();
+            try (final InputStream input = Files.newInputStream(file)) {
+                model.read(input, file.toUri().toString(), "TTL");
+            }
+            model.listResourcesWithProperty(type, model.createResource(WEBAC_AUTHORIZATION_VALUE))
+                    .forEachRemaining(auth -> authorizations.add(toAuthorization(model, auth)));
+        }
+        LOGGER.debug("Read {} authorizations from {}", authorizations.size(), directory);
+        return authorizations;
+    }
+
+    private static WebACAuthorization toAuthorization(final Model model, final Resource auth) {
+        return new WebACAuthorizationImpl(
+                values(model, auth, WEBAC_AGENT_VALUE),
+                values(model, auth, WEBAC_AGENT_CLASS_VALUE),
+                values(model, auth, WEBAC_MODE_VALUE).stream().map(URI::create).collect(toList()),
+                values(model, auth, WEBAC_ACCESSTO_VALUE),
+                values(model, auth, WEBAC_ACCESSTO_CLASS_VALUE));
+    }
+
+    private static List<String> values(final Model model, final Resource subject, final String property) {
+        return model.listObjectsOfProperty(subject, model.createProperty(property)).toList().stream()
+                .map(WebACPolicySimulator::valueOf)
+                .collect(toList());
+    }
+
+    private static String valueOf(final RDFNode node) {
+        if (node.isURIResource()) {
+            return node.asResource().getURI();
+        } else if (node.isLiteral()) {
+            return node.asLiteral().getLexicalForm();
+        }
+        return node.toString();
+    }
+
+}
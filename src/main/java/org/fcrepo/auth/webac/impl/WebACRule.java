@@ -0,0 +1,91 @@
+/**
+ * Copyright 2015 DuraSpace, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.auth.webac.impl;
+
+import java.net.URI;
+import java.util.Set;
+
+/**
+ * The policy of one or more equivalent WebAC authorizations, shared by every resource they target.
+ * A rule has no acl:accessTo values of its own; its targets are kept in the {@link WebACRuleSet} that
+ * indexes it. Rules are immutable and are only created by {@link WebACAuthorizationCompiler}.
+ *
+ * @author agent
+ * @since 10/18/26
+ */
+public final class WebACRule {
+
+    private final Set<String> agents;
+
+    private final Set<String> agentClasses;
+
+    private final Set<URI> modes;
+
+    private final Set<String> accessToClass;
+
+    /**
+     * Constructor
+     *
+     * @param agents the unmodifiable acl:agent values
+     * @param agentClasses the unmodifiable acl:agentClass values
+     * @param modes the unmodifiable acl:mode values
+     * @param accessToClass the unmodifiable acl:accessToClass values
+     */
+    WebACRule(final Set<String> agents, final Set<String> agentClasses, final Set<URI> modes,
+            final Set<String> accessToClass) {
+        this.agents = agents;
+        this.agentClasses = agentClasses;
+        this.modes = modes;
+        this.accessToClass = accessToClass;
+    }
+
+    /**
+     * Get the set of acl:agents, empty set if none.
+     *
+     * @return unmodifiable set of acl:agents
+     */
+    public Set<String> getAgents() {
+        return agents;
+    }
+
+    /**
+     * Get the set of acl:agentClasses, empty set if none.
+     *
+     * @return unmodifiable set of acl:agentClasses
+     */
+    public Set<String> getAgentClasses() {
+        return agentClasses;
+    }
+
+    /**
+     * Get the set of acl:modes, empty set if none.
+     *
+     * @return unmodifiable set of acl:modes
+     */
+    public Set<URI> getModes() {
+        return modes;
+    }
+
+    /**
+     * Get the set of acl:accessToClass values, empty set if none.
+     *
+     * @return unmodifiable set of acl:accessToClass values
+     */
+    public Set<String> getAccessToClassURIs() {
+        return accessToClass;
+    }
+
+}
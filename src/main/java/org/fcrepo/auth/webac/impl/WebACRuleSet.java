@@ -0,0 +1,143 @@
+/**
+ * Copyright 2015 DuraSpace, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.auth.webac.impl;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.unmodifiableSet;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable index of shared rules, produced by {@link WebACAuthorizationCompiler}. Rules are found
+ * by their acl:accessTo targets, and rules with acl:accessToClass values are also kept apart so they
+ * can be matched against the rdf:types of a resource.
+ *
+ * @author agent
+ * @since 10/18/26
+ */
+public class WebACRuleSet {
+
+    private final Map<String, Set<WebACRule>> rulesByTarget = new HashMap<>();
+
+    private final Set<WebACRule> classRules;
+
+    /**
+     * Constructor
+     *
+     * @param rulesByTarget the rules for each acl:accessTo target
+     * @param classRules the rules with acl:accessToClass values
+     */
+    WebACRuleSet(final Map<String, Set<WebACRule>> rulesByTarget,
+            final Set<WebACRule> classRules) {
+        rulesByTarget.forEach((target, rules) -> this.rulesByTarget.put(target, unmodifiableSet(rules)));
+        this.classRules = unmodifiableSet(classRules);
+    }
+
+    /**
+     * Get the rules that name a resource as their acl:accessTo target.
+     *
+     * @param accessTo the resource
+     * @return the rules, empty set if none
+     */
+    public Set<WebACRule> getRules(final String accessTo) {
+        return rulesByTarget.getOrDefault(accessTo, emptySet());
+    }
+
+    /**
+     * Get the rules that apply to a resource, either through acl:accessTo or through an
+     * acl:accessToClass value that is one of the resource's rdf:types.
+     *
+     * @param accessTo the resource
+     * @param types the rdf:types of the resource
+     * @return the rules, empty set if none
+     */
+    public Set<WebACRule> getRules(final String accessTo, final Collection<String> types) {
+        if (types.isEmpty() || classRules.isEmpty()) {
+            return getRules(accessTo);
+        }
+        final Set<WebACRule> rules = new HashSet<>(getRules(accessTo));
+        for (final WebACRule rule : classRules) {
+            if (types.stream().anyMatch(rule.getAccessToClassURIs()::contains)) {
+                rules.add(rule);
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Get the rules that are in effect for a resource, following Fedora's WebAC inheritance: a resource
+     * that is not itself an acl:accessTo target is governed by the rules of its nearest ancestor that
+     * is. Rules whose acl:accessToClass values include one of the resource's rdf:types also apply.
+     *
+     * @param resource the resource
+     * @param types the rdf:types of the resource
+     * @return the rules, empty set if none
+     */
+    public Set<WebACRule> getEffectiveRules(final String resource, final Collection<String> types) {
+        final String target = resolveTarget(resource);
+        return getRules(target == null ? resource : target, types);
+    }
+
+    /**
+     * Find the acl:accessTo target that governs a resource: the resource itself if it is a target,
+     * otherwise its nearest ancestor, by path, that is a target.
+     *
+     * @param resource the resource
+     * @return the target, or null if neither the resource nor any of its ancestors is a target
+     */
+    public String resolveTarget(final String resource) {
+        String path = resource;
+        while (path != null) {
+            if (rulesByTarget.containsKey(path)) {
+                return path;
+            }
+            path = getParent(path);
+        }
+        return null;
+    }
+
+    /**
+     * Get the rules that have acl:accessToClass values.
+     *
+     * @return the rules
+     */
+    public Set<WebACRule> getClassRules() {
+        return classRules;
+    }
+
+    /**
+     * Get the acl:accessTo targets in this rule set.
+     *
+     * @return the targets
+     */
+    public Set<String> getTargets() {
+        return unmodifiableSet(rulesByTarget.keySet());
+    }
+
+    private static String getParent(final String path) {
+        final String trimmed = path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+        final int slash = trimmed.lastIndexOf('/');
+        if (slash <= 0 || trimmed.charAt(slash - 1) == '/') {
+            return null;
+        }
+        return trimmed.substring(0, slash);
+    }
+
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2015 DuraSpace, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.auth.webac.impl;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_READ;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fcrepo.auth.webac.WebACAuthorization;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @since 10/18/26
+ */
+public class WebACAuthorizationCacheTest {
+
+    private final String ACL_PATH = "/dark/archive";
+    private final String ACCESS_TO = "http://localhost:8080/rest/dark/archive";
+
+    private final WebACAuthorization auth = new WebACAuthorizationImpl(singletonList("Restricted"),
+            emptyList(), singletonList(WEBAC_MODE_READ), singletonList(ACCESS_TO), emptyList());
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCoalescedLoad() throws Exception {
+        final int callers = 32;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch requested = new CountDownLatch(callers);
+        final CountDownLatch release = new CountDownLatch(1);
+        final WebACAuthorizationCache cache = new WebACAuthorizationCache(path -> {
+            loads.incrementAndGet();
+            await(release);
+            return singletonList(auth);
+        }, executor);
+
+        final ExecutorService callerPool = Executors.newFixedThreadPool(callers);
+        try {
+            final List<Future<CompletableFuture<WebACRuleSet>>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(callerPool.submit(() -> {
+                    await(start);
+                    try {
+                        return cache.get(ACL_PATH);
+                    } finally {
+                        requested.countDown();
+                    }
+                }));
+            }
+            start.countDown();
+            assertTrue(requested.await(5, SECONDS));
+            release.countDown();
+
+            final WebACRuleSet result = futures.get(0).get(5, SECONDS).get(5, SECONDS);
+            for (final Future<CompletableFuture<WebACRuleSet>> future : futures) {
+                assertSame(result, future.get(5, SECONDS).get(5, SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(1, result.getRules(ACCESS_TO).size());
+            assertSame(result, cache.get(ACL_PATH).get(5, SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            callerPool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        final WebACAuthorizationCache cache = new WebACAuthorizationCache(path -> {
+            loads.incrementAndGet();
+            return singletonList(auth);
+        }, executor);
+
+        cache.get(ACL_PATH).get(5, SECONDS);
+        cache.invalidate(ACL_PATH);
+        cache.get(ACL_PATH).get(5, SECONDS);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testFailureNotCached() throws Exception {
+        final WebACAuthorizationCache cache = new WebACAuthorizationCache(path -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IllegalStateException("Repository unavailable");
+            }
+            return singletonList(auth);
+        }, executor);
+
+        try {
+            cache.get(ACL_PATH).get(5, SECONDS);
+            fail("Expected the first load to fail");
+        } catch (final ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+        assertFalse(cache.get(ACL_PATH).get(5, SECONDS).getRules(ACCESS_TO).isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testErrorNotCached() throws Exception {
+        final WebACAuthorizationCache cache = new WebACAuthorizationCache(path -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new AssertionError("Loader failure");
+            }
+            return singletonList(auth);
+        }, executor);
+
+        try {
+            cache.get(ACL_PATH).get(5, SECONDS);
+            fail("Expected the first load to fail");
+        } catch (final ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof AssertionError);
+        }
+        assertFalse(cache.get(ACL_PATH).get(5, SECONDS).getRules(ACCESS_TO).isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testMaximumSize() throws Exception {
+        final WebACAuthorizationCache cache = new WebACAuthorizationCache(path -> {
+            loads.incrementAndGet();
+            return singletonList(auth);
+        }, new WebACAuthorizationCompiler(), executor, 2);
+
+        for (int i = 0; i < 10; i++) {
+            cache.get(ACL_PATH + i).get(5, SECONDS);
+            assertTrue(cache.size() <= 2);
+        }
+        assertEquals(10, loads.get());
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright 2015 DuraSpace, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.auth.webac.impl;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_READ;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_WRITE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.fcrepo.auth.webac.WebACAuthorization;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @since 10/18/26
+ */
+public class WebACAuthorizationCompilerTest {
+
+    private final String AGENT1 = "me";
+    private final String AGENT2 = "you";
+    private final String AGENT_CLASS1 = "this";
+    private final String ACCESS_TO1 = "/foo";
+    private final String ACCESS_TO2 = "/bar";
+    private final String ACCESS_TO3 = "/baz";
+    private final String ACCESS_TO4 = "http://localhost:8080/rest/collection";
+    private final String ACCESS_TO_CLASS1 = "ex:Image";
+
+    private WebACAuthorizationCompiler compiler;
+
+    @Before
+    public void setUp() {
+        compiler = new WebACAuthorizationCompiler();
+    }
+
+    @Test
+    public void testSharedRule() {
+        final WebACAuthorization auth1 = new WebACAuthorizationImpl(Arrays.asList(AGENT1, AGENT2),
+                singletonList(AGENT_CLASS1), Arrays.asList(WEBAC_MODE_READ, WEBAC_MODE_WRITE),
+                singletonList(ACCESS_TO1), emptyList());
+        final WebACAuthorization auth2 = new WebACAuthorizationImpl(Arrays.asList(AGENT2, AGENT1),
+                singletonList(AGENT_CLASS1), Arrays.asList(WEBAC_MODE_WRITE, WEBAC_MODE_READ),
+                Arrays.asList(ACCESS_TO2, ACCESS_TO3), emptyList());
+
+        final WebACRuleSet rules = compiler.compile(Arrays.asList(auth1, auth2));
+
+        assertEquals(3, rules.getTargets().size());
+        assertEquals(1, rules.getRules(ACCESS_TO1).size());
+        final WebACRule rule = rules.getRules(ACCESS_TO1).iterator().next();
+        assertSame(rule, rules.getRules(ACCESS_TO2).iterator().next());
+        assertSame(rule, rules.getRules(ACCESS_TO3).iterator().next());
+        assertEquals(2, rule.getAgents().size());
+        assertEquals(2, rule.getModes().size());
+        assertEquals(1, compiler.size());
+    }
+
+    @Test
+    public void testSharedAcrossCompilations() {
+        final WebACAuthorization auth1 = new WebACAuthorizationImpl(singletonList(AGENT1),
+                emptyList(), singletonList(WEBAC_MODE_READ), singletonList(ACCESS_TO1), emptyList());
+        final WebACAuthorization auth2 = new WebACAuthorizationImpl(singletonList(AGENT1),
+                emptyList(), singletonList(WEBAC_MODE_READ), singletonList(ACCESS_TO2), emptyList());
+
+        final WebACRuleSet rules1 = compiler.compile(singletonList(auth1));
+        final WebACRuleSet rules2 = compiler.compile(singletonList(auth2));
+
+        assertSame(rules1.getRules(ACCESS_TO1).iterator().next(), rules2.getRules(ACCESS_TO2).iterator().next());
+        assertTrue(rules1.getRules(ACCESS_TO2).isEmpty());
+        assertEquals(1, compiler.size());
+    }
+
+    @Test
+    public void testDistinctPolicies() {
+        final WebACAuthorization auth1 = new WebACAuthorizationImpl(singletonList(AGENT1),
+                emptyList(), singletonList(WEBAC_MODE_READ), singletonList(ACCESS_TO1), emptyList());
+        final WebACAuthorization auth2 = new WebACAuthorizationImpl(singletonList(AGENT1),
+                emptyList(), singletonList(WEBAC_MODE_WRITE), singletonList(ACCESS_TO1), emptyList());
+        final WebACAuthorization auth3 = new WebACAuthorizationImpl(singletonList(AGENT1),
+                emptyList(), singletonList(WEBAC_MODE_READ), emptyList(), singletonList(ACCESS_TO_CLASS1));
+        final WebACAuthorization auth4 = new WebACAuthorizationImpl(singletonList(AGENT1),
+                emptyList(), singletonList(WEBAC_MODE_READ), singletonList(ACCESS_TO2), emptyList());
+
+        final WebACRuleSet rules = compiler.compile(Arrays.asList(auth1, auth2, auth3, auth4));
+
+        assertEquals(3, compiler.size());
+        assertEquals(2, rules.getTargets().size());
+        assertEquals(2, rules.getRules(ACCESS_TO1).size());
+        assertEquals(1, rules.getRules(ACCESS_TO2).size());
+        assertTrue(rules.getRules(ACCESS_TO1).containsAll(rules.getRules(ACCESS_TO2)));
+        assertEquals(1, rules.getClassRules().size());
+        assertEquals(2, rules.getRules(ACCESS_TO2, singletonList(ACCESS_TO_CLASS1)).size());
+    }
+
+    @Test
+    public void testResolveTarget() {
+        final WebACAuthorization auth = new WebACAuthorizationImpl(singletonList(AGENT1),
+                emptyList(), singletonList(WEBAC_MODE_READ), singletonList(ACCESS_TO4), emptyList());
+
+        final WebACRuleSet rules = compiler.compile(singletonList(auth));
+
+        assertEquals(ACCESS_TO4, rules.resolveTarget(ACCESS_TO4));
+        assertEquals(ACCESS_TO4, rules.resolveTarget(ACCESS_TO4 + "/child/grandchild"));
+        assertNull(rules.resolveTarget("http://localhost:8080/rest/other"));
+        assertEquals(1, rules.getEffectiveRules(ACCESS_TO4 + "/child", emptyList()).size());
+    }
+
+    @Test
+    public void testUnreferencedRuleReclaimed() throws Exception {
+        final WebACAuthorization auth = new WebACAuthorizationImpl(singletonList(AGENT1),
+                emptyList(), singletonList(WEBAC_MODE_READ), singletonList(ACCESS_TO1), emptyList());
+
+        WebACRuleSet rules = compiler.compile(singletonList(auth));
+        assertEquals(1, compiler.size());
+        assertEquals(1, rules.getRules(ACCESS_TO1).size());
+        rules = null;
+
+        for (int i = 0; i < 50 && compiler.size() > 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(0, compiler.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutableRule() {
+        final WebACAuthorization auth = new WebACAuthorizationImpl(singletonList(AGENT1),
+                emptyList(), singletonList(WEBAC_MODE_READ), singletonList(ACCESS_TO1), emptyList());
+
+        compiler.intern(auth).getAgents().add(AGENT2);
+    }
+
+}
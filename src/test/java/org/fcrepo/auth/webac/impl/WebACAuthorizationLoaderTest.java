@@ -0,0 +1,181 @@
+/**
+ * Copyright 2015 DuraSpace, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.auth.webac.impl;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_READ;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.PathNotFoundException;
+import javax.jcr.Property;
+import javax.jcr.Repository;
+import javax.jcr.Session;
+import javax.jcr.Value;
+
+import org.fcrepo.auth.webac.WebACAuthorization;
+import org.fcrepo.kernel.exception.RepositoryRuntimeException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+/**
+ * @author agent
+ * @since 10/18/26
+ */
+public class WebACAuthorizationLoaderTest {
+
+    private final String ACL = "http://www.w3.org/ns/auth/acl#";
+    private final String RDF = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+    private final String RDF_TYPE = "{" + RDF + "}type";
+    private final String ACCESS_CONTROL_REF = "{" + ACL + "}accessControl_ref";
+    private final String AGENT = "{" + ACL + "}agent";
+    private final String MODE = "{" + ACL + "}mode";
+    private final String ACCESS_TO = "{" + ACL + "}accessTo";
+
+    private final String ARCHIVE_PATH = "/dark/archive";
+    private final String BOX_PATH = "/dark/archive/box";
+    private final String ARCHIVE = "http://localhost:8080/rest/dark/archive";
+    private final String ACL_ID = "acl-identifier";
+
+    private WebACAuthorizationLoader loader;
+
+    @Mock
+    private Repository mockRepository;
+
+    @Mock
+    private Session mockSession;
+
+    @Mock
+    private Node mockRoot;
+
+    @Mock
+    private Node mockArchive;
+
+    @Mock
+    private Node mockBox;
+
+    @Mock
+    private Node mockAcl;
+
+    @Mock
+    private Node mockAuthorization;
+
+    @Mock
+    private Node mockOther;
+
+    @Mock
+    private NodeIterator mockChildren;
+
+    @Before
+    public void setUp() throws Exception {
+        initMocks(this);
+        when(mockRepository.login()).thenReturn(mockSession);
+        when(mockSession.getNode("/")).thenReturn(mockRoot);
+        when(mockSession.getNode(ARCHIVE_PATH)).thenReturn(mockArchive);
+        when(mockSession.getNode(BOX_PATH)).thenReturn(mockBox);
+        when(mockSession.getNodeByIdentifier(ACL_ID)).thenReturn(mockAcl);
+
+        when(mockBox.getDepth()).thenReturn(3);
+        when(mockBox.getParent()).thenReturn(mockArchive);
+        when(mockArchive.getDepth()).thenReturn(2);
+        when(mockArchive.getSession()).thenReturn(mockSession);
+        setProperty(mockArchive, ACCESS_CONTROL_REF, ACL_ID);
+
+        when(mockAcl.getPath()).thenReturn(ARCHIVE_PATH + "/acl");
+        when(mockAcl.getNodes()).thenReturn(mockChildren);
+        when(mockChildren.hasNext()).thenReturn(true, true, false);
+        when(mockChildren.nextNode()).thenReturn(mockOther, mockAuthorization);
+
+        setProperty(mockAuthorization, RDF_TYPE, ACL + "Authorization");
+        setProperty(mockAuthorization, AGENT, "Restricted");
+        setProperty(mockAuthorization, MODE, WEBAC_MODE_READ.toString());
+        setProperty(mockAuthorization, ACCESS_TO, ARCHIVE);
+
+        loader = new WebACAuthorizationLoader(mockRepository);
+    }
+
+    @Test
+    public void testFollowsAccessControl() {
+        final List<WebACAuthorization> auths = loader.apply(ARCHIVE_PATH);
+
+        assertEquals(1, auths.size());
+        final WebACAuthorization auth = auths.get(0);
+        assertTrue(auth.getAgents().contains("Restricted"));
+        assertTrue(auth.getModes().contains(WEBAC_MODE_READ));
+        assertTrue(auth.getAccessToURIs().contains(ARCHIVE));
+        verify(mockSession).logout();
+    }
+
+    @Test
+    public void testInheritsAncestorAcl() {
+        final List<WebACAuthorization> auths = loader.apply(BOX_PATH);
+
+        assertEquals(1, auths.size());
+        assertTrue(auths.get(0).getAccessToURIs().contains(ARCHIVE));
+    }
+
+    @Test
+    public void testNoAcl() {
+        assertTrue(loader.apply("/").isEmpty());
+        verify(mockSession).logout();
+    }
+
+    @Test
+    public void testLoadedThroughCache() throws Exception {
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            final WebACAuthorizationCache cache = new WebACAuthorizationCache(loader, executor);
+
+            final WebACRuleSet rules = cache.get(BOX_PATH).get(5, SECONDS);
+
+            assertEquals(1, rules.getRules(ARCHIVE).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = RepositoryRuntimeException.class)
+    public void testRepositoryException() throws Exception {
+        when(mockSession.getNode("/missing")).thenThrow(new PathNotFoundException("/missing"));
+        try {
+            loader.apply("/missing");
+        } finally {
+            verify(mockSession).logout();
+        }
+    }
+
+    private static void setProperty(final Node node, final String name, final String value) throws Exception {
+        final Property property = mock(Property.class);
+        final Value jcrValue = mock(Value.class);
+        when(jcrValue.getString()).thenReturn(value);
+        when(property.getValue()).thenReturn(jcrValue);
+        when(node.hasProperty(name)).thenReturn(true);
+        when(node.getProperty(name)).thenReturn(property);
+    }
+
+}
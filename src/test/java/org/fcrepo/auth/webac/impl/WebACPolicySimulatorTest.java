@@ -0,0 +1,169 @@
+/**
+ * Copyright 2015 DuraSpace, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.auth.webac.impl;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.fcrepo.auth.webac.URIConstants.FOAF_AGENT_VALUE;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_READ;
+import static org.fcrepo.auth.webac.URIConstants.WEBAC_MODE_WRITE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.fcrepo.auth.webac.WebACAuthorization;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @since 10/18/26
+ */
+public class WebACPolicySimulatorTest {
+
+    private final String PUBLIC_COLLECTION = "http://localhost:8080/rest/public_collection";
+    private final String OTHER_COLLECTION = "http://localhost:8080/rest/other_collection";
+    private final String MIXED_COLLECTION = "http://localhost:8080/rest/mixedCollection";
+    private final String PUBLIC_IMAGE = "http://localhost:8080/rest/mixedCollection/image";
+    private final String PUBLIC_IMAGE_CLASS = "http://example.com/terms#publicImage";
+    private final String ARCHIVE = "http://localhost:8080/rest/dark/archive";
+    private final String SUNSHINE = "http://localhost:8080/rest/dark/archive/sunshine";
+    private final String ADMINS = "Admins";
+    private final String RESTRICTED = "Restricted";
+    private final String EDITORS = "Editors";
+    private final String ANONYMOUS = "anonymous";
+
+    @Test
+    public void testReadAuthorizations() throws Exception {
+        final List<WebACAuthorization> auths = WebACPolicySimulator.readAuthorizations(getAcls("04"));
+
+        assertEquals(2, auths.size());
+        for (final WebACAuthorization auth : auths) {
+            assertEquals(1, auth.getAccessToURIs().size());
+            assertTrue(auth.getAccessToURIs().contains(PUBLIC_COLLECTION));
+            assertTrue(auth.getModes().contains(WEBAC_MODE_READ));
+        }
+        assertTrue(auths.stream().anyMatch(auth -> auth.getAgents().contains(FOAF_AGENT_VALUE)));
+        assertTrue(auths.stream().anyMatch(auth -> auth.getAgents().contains(EDITORS) &&
+                auth.getModes().contains(WEBAC_MODE_WRITE)));
+    }
+
+    @Test
+    public void testRemovePublicRead() throws Exception {
+        final List<WebACAuthorization> current = WebACPolicySimulator.readAuthorizations(getAcls("04"));
+        final List<WebACAuthorization> proposed = current.stream()
+                .filter(auth -> !auth.getAgents().contains(FOAF_AGENT_VALUE))
+                .collect(toList());
+
+        final WebACPolicyReport report = new WebACPolicySimulator(current, proposed)
+                .simulate(Arrays.asList(PUBLIC_COLLECTION, OTHER_COLLECTION), Arrays.asList(EDITORS, ANONYMOUS));
+
+        assertEquals(16, report.getEvaluated());
+        assertEquals(1, report.getUnmatched().size());
+        assertTrue(report.getUnmatched().contains(OTHER_COLLECTION));
+        assertTrue(report.getGained().isEmpty());
+        assertEquals(1, report.getLost().size());
+        final WebACPolicyReport.Change change = report.getLost().get(0);
+        assertEquals(PUBLIC_COLLECTION, change.getResource());
+        assertEquals(ANONYMOUS, change.getPrincipal());
+        assertEquals(WEBAC_MODE_READ, change.getMode());
+        assertFalse(change.isGranted());
+    }
+
+    @Test
+    public void testInheritedFromAncestor() throws Exception {
+        final List<WebACAuthorization> current = WebACPolicySimulator.readAuthorizations(getAcls("03"));
+        final List<WebACAuthorization> proposed = current.stream()
+                .filter(auth -> !auth.getAgents().contains(RESTRICTED))
+                .collect(toList());
+
+        final WebACPolicyReport report = new WebACPolicySimulator(current, proposed)
+                .simulate(Arrays.asList(ARCHIVE, ARCHIVE + "/box", SUNSHINE, SUNSHINE + "/photo"),
+                        Arrays.asList(RESTRICTED, ANONYMOUS));
+
+        assertTrue(report.getUnmatched().isEmpty());
+        assertTrue(report.getGained().isEmpty());
+        assertEquals(2, report.getLost().size());
+        assertTrue(report.getAffectedResources().contains(ARCHIVE));
+        assertTrue(report.getAffectedResources().contains(ARCHIVE + "/box"));
+        assertTrue(report.getLost().stream().allMatch(change -> change.getPrincipal().equals(RESTRICTED)));
+    }
+
+    @Test
+    public void testGrantWrite() {
+        final WebACAuthorization read = new WebACAuthorizationImpl(singletonList(EDITORS), emptyList(),
+                singletonList(WEBAC_MODE_READ), Arrays.asList(PUBLIC_COLLECTION, OTHER_COLLECTION), emptyList());
+        final WebACAuthorization write = new WebACAuthorizationImpl(emptyList(), singletonList(FOAF_AGENT_VALUE),
+                singletonList(WEBAC_MODE_WRITE), singletonList(OTHER_COLLECTION), emptyList());
+
+        final WebACPolicyReport report = new WebACPolicySimulator(singletonList(read), Arrays.asList(read, write))
+                .simulate(Arrays.asList(PUBLIC_COLLECTION, OTHER_COLLECTION), Arrays.asList(EDITORS, ANONYMOUS));
+
+        assertTrue(report.getLost().isEmpty());
+        assertEquals(2, report.getGained().size());
+        assertEquals(1, report.getAffectedResources().size());
+        assertTrue(report.getAffectedResources().contains(OTHER_COLLECTION));
+        assertEquals(2, report.getAffectedPrincipals().size());
+    }
+
+    @Test
+    public void testRemoveClassBasedRead() throws Exception {
+        final List<WebACAuthorization> current = WebACPolicySimulator.readAuthorizations(getAcls("05"));
+        final List<WebACAuthorization> proposed = current.stream()
+                .filter(auth -> auth.getAccessToClassURIs().isEmpty())
+                .collect(toList());
+        final Map<String, List<String>> resources = new HashMap<>();
+        resources.put(MIXED_COLLECTION, emptyList());
+        resources.put(PUBLIC_IMAGE, singletonList(PUBLIC_IMAGE_CLASS));
+
+        final WebACPolicyReport report = new WebACPolicySimulator(current, proposed)
+                .simulate(resources, Arrays.asList(ADMINS, ANONYMOUS));
+
+        assertEquals(0, report.getUnevaluated());
+        assertTrue(report.getGained().isEmpty());
+        assertEquals(2, report.getLost().size());
+        assertEquals(1, report.getAffectedResources().size());
+        assertTrue(report.getAffectedResources().contains(PUBLIC_IMAGE));
+        assertTrue(report.getLost().stream().allMatch(change -> change.getMode().equals(WEBAC_MODE_READ)));
+    }
+
+    @Test
+    public void testClassBasedReadWithoutTypes() throws Exception {
+        final List<WebACAuthorization> current = WebACPolicySimulator.readAuthorizations(getAcls("05"));
+        final List<WebACAuthorization> proposed = current.stream()
+                .filter(auth -> auth.getAccessToClassURIs().isEmpty())
+                .collect(toList());
+
+        final WebACPolicyReport report = new WebACPolicySimulator(current, proposed)
+                .simulate(Arrays.asList(MIXED_COLLECTION, PUBLIC_IMAGE), Arrays.asList(ADMINS, ANONYMOUS));
+
+        assertTrue(report.getChanges().isEmpty());
+        assertEquals(1, report.getUnevaluated());
+    }
+
+    private Path getAcls(final String name) throws Exception {
+        return Paths.get(getClass().getResource("/acls/" + name).toURI());
+    }
+
+}
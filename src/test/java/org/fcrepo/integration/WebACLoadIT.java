@@ -0,0 +1,327 @@
+/**
+ * Copyright 2015 DuraSpace, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.integration.auth.webac;
+
+import static java.lang.Boolean.getBoolean;
+import static java.lang.Integer.getInteger;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPatch;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.fcrepo.auth.roles.basic.integration.AbstractBasicRolesIT;
+import org.fcrepo.auth.roles.common.integration.RolesFadTestObjectBean;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+/**
+ * Throughput and latency budgets for WebAC-protected requests. A tree of resources is seeded with
+ * ACLs generated from the acls/* fixtures, then authorized reads, denied reads and ACL-changing
+ * writes are each driven concurrently and checked against their p99 latency and throughput budgets.
+ *
+ * <p>Authorized reads are made as the agents named by each resource's fixture, and denials as
+ * principals that no fixture grants, so both go through the authorization delegate. Their budgets
+ * only measure ACL resolution once {@link org.fcrepo.auth.webac.WebACAuthorizationDelegate} evaluates
+ * ACLs, so both tests are skipped unless a probe read by a fixture agent is permitted. ACL writes go
+ * to a separate tree of resources, so the ACLs that the reads are checked against never change.</p>
+ *
+ * <p>The suite is a tool for comparing releases and is skipped unless it is enabled with
+ * -Dfcrepo.test.load=true. The size of the run and the budgets may be set with the system
+ * properties fcrepo.test.load.resources, fcrepo.test.load.requests, fcrepo.test.load.threads,
+ * fcrepo.test.load.minThroughput (requests per second), fcrepo.test.load.readP99 and
+ * fcrepo.test.load.writeP99 (milliseconds).</p>
+ *
+ * @author agent
+ * @since 10/18/26
+ */
+public class WebACLoadIT extends AbstractBasicRolesIT {
+
+    private static Logger LOGGER = getLogger(WebACLoadIT.class);
+
+    private static final int RESOURCES = getInteger("fcrepo.test.load.resources", 1000);
+
+    private static final int REQUESTS = getInteger("fcrepo.test.load.requests", 2000);
+
+    private static final int THREADS = getInteger("fcrepo.test.load.threads", 16);
+
+    private static final int MIN_THROUGHPUT = getInteger("fcrepo.test.load.minThroughput", 50);
+
+    private static final int READ_P99 = getInteger("fcrepo.test.load.readP99", 500);
+
+    private static final int WRITE_P99 = getInteger("fcrepo.test.load.writeP99", 2000);
+
+    private static final String ADMIN = "fedoraAdmin";
+
+    private static final String[] UNAUTHORIZED = { null, "webacLoadUser" };
+
+    private static final String[] FIXTURES = { "01", "02", "03", "04", "05" };
+
+    /**
+     * An acl:agent granted acl:Read by each fixture, in the same order as FIXTURES.
+     */
+    private static final String[] FIXTURE_AGENTS = { "smith123", "Editors", "Restricted", "Editors", "Admins" };
+
+    /**
+     * The fixtures that grant acl:Read on the resource itself to foaf:Agent, i.e. to everyone.
+     */
+    private static final List<String> PUBLIC_FIXTURES = Arrays.asList("03", "04");
+
+    private static final String LOAD_ROOT = serverAddress + "webac_load";
+
+    private static final String WRITE_ROOT = serverAddress + "webac_load_writes";
+
+    private static final String FIXTURE_HOST = "http://localhost:8080/rest/";
+
+    private static boolean seeded = false;
+
+    private static Boolean aclsEvaluated;
+
+    @Override
+    protected List<RolesFadTestObjectBean> getTestObjs() {
+        return test_objs;
+    }
+
+    /**
+     * Seed the read and write trees of resources and their ACLs once for all of the load tests.
+     *
+     * @throws IOException if a fixture cannot be read or a request fails
+     */
+    @Before
+    public void seed() throws IOException {
+        assumeTrue("Load tests are enabled with -Dfcrepo.test.load=true", getBoolean("fcrepo.test.load"));
+        synchronized (WebACLoadIT.class) {
+            if (seeded) {
+                return;
+            }
+            seed(LOAD_ROOT, RESOURCES);
+            seed(WRITE_ROOT, Math.min(REQUESTS, RESOURCES));
+            seeded = true;
+        }
+    }
+
+    private static void seed(final String root, final int count) throws IOException {
+        LOGGER.info("Seeding {} resources with ACLs under {}", count, root);
+        assertSuccess(put(root, null));
+        for (int i = 0; i < count; i++) {
+            final String resource = resource(root, i);
+            assertSuccess(put(resource, null));
+            assertSuccess(put(resource + "/acl", fixture(i, "acl.ttl", resource)));
+            for (final String authorization : authorizations(i)) {
+                assertSuccess(put(resource + "/acl/" + authorization.replace(".ttl", ""),
+                        fixture(i, authorization, resource)));
+            }
+            final HttpPatch patch = new HttpPatch(resource);
+            setAuth(patch, ADMIN);
+            patch.setHeader("Content-Type", "application/sparql-update");
+            patch.setEntity(new StringEntity("PREFIX acl: <http://www.w3.org/ns/auth/acl#> " +
+                    "INSERT { <> acl:accessControl <" + resource + "/acl> } WHERE {}", UTF_8));
+            assertSuccess(status(patch));
+        }
+    }
+
+    /**
+     * Reads by agents that the resource's ACL permits.
+     *
+     * @throws Exception if the load run fails
+     */
+    @Test
+    public void testAuthorizedReads() throws Exception {
+        assumeAclsEvaluated();
+        run("authorized reads", REQUESTS, READ_P99,
+                i -> get(resource(LOAD_ROOT, i), FIXTURE_AGENTS[i % FIXTURE_AGENTS.length]),
+                status -> status == 200);
+    }
+
+    /**
+     * Anonymous and authenticated reads of resources whose ACL does not permit them.
+     *
+     * @throws Exception if the load run fails
+     */
+    @Test
+    public void testDenials() throws Exception {
+        assumeAclsEvaluated();
+        final List<Integer> restricted = IntStream.range(0, RESOURCES)
+                .filter(i -> !PUBLIC_FIXTURES.contains(FIXTURES[i % FIXTURES.length]))
+                .boxed()
+                .collect(toList());
+        run("denials", REQUESTS, READ_P99,
+                i -> get(resource(LOAD_ROOT, restricted.get(i % restricted.size())),
+                        UNAUTHORIZED[i % UNAUTHORIZED.length]),
+                status -> status == 401 || status == 403);
+    }
+
+    /**
+     * Writes that replace the first authorization of an existing ACL with the policy of the next
+     * fixture. The writes go to their own tree, and each resource is written at most once so that
+     * concurrent writes do not conflict.
+     *
+     * @throws Exception if the load run fails
+     */
+    @Test
+    public void testAclWrites() throws Exception {
+        run("ACL writes", Math.min(REQUESTS, RESOURCES), WRITE_P99, i -> {
+            final String resource = resource(WRITE_ROOT, i);
+            final String authorization = authorizations(i).get(0);
+            final HttpPut put = new HttpPut(resource + "/acl/" + authorization.replace(".ttl", ""));
+            setAuth(put, ADMIN);
+            put.setHeader("Content-Type", "text/turtle");
+            put.setEntity(new StringEntity(fixture(i + 1, authorizations(i + 1).get(0), resource), UTF_8));
+            return put;
+        }, status -> status >= 200 && status < 300);
+    }
+
+    private void run(final String name, final int count, final int p99Budget,
+            final IntFunction<HttpUriRequest> requests, final IntPredicate expected) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final List<Future<Long>> futures = new ArrayList<>(count);
+        final long start = System.nanoTime();
+        try {
+            for (int i = 0; i < count; i++) {
+                final HttpUriRequest request = requests.apply(i % RESOURCES);
+                futures.add(executor.submit(() -> {
+                    final long begin = System.nanoTime();
+                    final int status = status(request);
+                    final long elapsed = System.nanoTime() - begin;
+                    assertTrue(name + ": unexpected status " + status + " for " + request.getURI(),
+                            expected.test(status));
+                    return elapsed;
+                }));
+            }
+            final List<Long> latencies = new ArrayList<>(count);
+            for (final Future<Long> future : futures) {
+                latencies.add(future.get());
+            }
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            Collections.sort(latencies);
+            final long p99 = NANOSECONDS.toMillis(latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1));
+            final double throughput = count / seconds;
+
+            LOGGER.info("{}: {} requests, {} req/s, p99 {} ms", name, count, String.format("%.1f", throughput),
+                    p99);
+            assertTrue(name + ": p99 of " + p99 + " ms exceeds " + p99Budget + " ms", p99 <= p99Budget);
+            assertTrue(name + ": throughput of " + throughput + " req/s is below " + MIN_THROUGHPUT,
+                    throughput >= MIN_THROUGHPUT);
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(1, MINUTES);
+        }
+    }
+
+    /**
+     * Skip the calling test unless the authorization delegate evaluates ACLs, which is probed once by
+     * reading a seeded resource as the agent that its fixture grants acl:Read.
+     *
+     * @throws IOException if the probe request fails
+     */
+    private static void assumeAclsEvaluated() throws IOException {
+        synchronized (WebACLoadIT.class) {
+            if (aclsEvaluated == null) {
+                aclsEvaluated = status(get(resource(LOAD_ROOT, 0), FIXTURE_AGENTS[0])) == 200;
+            }
+        }
+        assumeTrue("The authorization delegate does not evaluate ACLs", aclsEvaluated);
+    }
+
+    private static String resource(final String root, final int i) {
+        return root + "/resource" + i;
+    }
+
+    private static HttpGet get(final String uri, final String username) {
+        final HttpGet get = new HttpGet(uri);
+        if (username != null) {
+            setAuth(get, username);
+        }
+        return get;
+    }
+
+    private static int put(final String uri, final String turtle) throws IOException {
+        final HttpPut put = new HttpPut(uri);
+        setAuth(put, ADMIN);
+        if (turtle != null) {
+            put.setHeader("Content-Type", "text/turtle");
+            put.setEntity(new StringEntity(turtle, UTF_8));
+        }
+        return status(put);
+    }
+
+    private static int status(final HttpUriRequest request) throws IOException {
+        final HttpResponse response = client.execute(request);
+        EntityUtils.consume(response.getEntity());
+        return response.getStatusLine().getStatusCode();
+    }
+
+    private static void assertSuccess(final int status) {
+        assertEquals(2, status / 100);
+    }
+
+    private static List<String> authorizations(final int i) {
+        try (final Stream<Path> files = Files.list(fixtureDir(i))) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(f -> f.endsWith(".ttl") && !f.equals("acl.ttl"))
+                    .sorted()
+                    .collect(toList());
+        } catch (final IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String fixture(final int i, final String file, final String resource) {
+        try {
+            final String turtle = new String(Files.readAllBytes(fixtureDir(i).resolve(file)), UTF_8);
+            return turtle.replaceAll("<" + FIXTURE_HOST + "[^>]*>", "<" + resource + ">");
+        } catch (final IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Path fixtureDir(final int i) {
+        try {
+            return Paths.get(WebACLoadIT.class.getResource("/acls/" + FIXTURES[i % FIXTURES.length]).toURI());
+        } catch (final URISyntaxException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+}